@@ -11,6 +11,7 @@ repositories {
 }
 dependencies {
     implementation("org.jetbrains.intellij.plugins:structure-intellij:3.259")
+    testImplementation("junit:junit:4.13.2")
 }
 
 // Configure Gradle IntelliJ Plugin
@@ -0,0 +1,69 @@
+package si.dtogenerator;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+
+/**
+ * Generated artefacts that are compared against their entity by the stale artefact inspection.
+ */
+public enum ArtefactKind {
+    RETURN_DTO("ReturnDTO"),
+    BP("BP"),
+    DAO("DAO"),
+    MAPPER("Mapper");
+
+    private final String suffix;
+
+    ArtefactKind(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String getClassName(String entityName) {
+        return entityName + suffix;
+    }
+
+    /**
+     * Looks up the directory the generator places this artefact in. Unlike the generator, missing directories are
+     * not created.
+     */
+    public PsiDirectory findDirectory(PsiClass entityClass) {
+        PsiFile entityFile = entityClass.getContainingFile();
+        PsiDirectory directory = entityFile == null ? null : entityFile.getContainingDirectory();
+        PsiDirectory parentDirectory = directory == null ? null : directory.getParent();
+        if (parentDirectory == null) {
+            return null;
+        }
+        switch (this) {
+            case RETURN_DTO:
+                PsiDirectory serviceDirectory = parentDirectory.findSubdirectory("service");
+                return serviceDirectory == null ? null
+                        : serviceDirectory.findSubdirectory(JpaEntityUtil.lowercaseFirstLetter(entityClass.getName()));
+            case BP:
+                return parentDirectory.findSubdirectory("beanParams");
+            case DAO:
+                return parentDirectory.findSubdirectory("DAO");
+            case MAPPER:
+                return parentDirectory.findSubdirectory("mapping");
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the generated class of this kind for the given entity, or {@code null} when it was not generated yet.
+     */
+    public PsiClass findClass(PsiClass entityClass) {
+        PsiDirectory directory = findDirectory(entityClass);
+        if (directory == null) {
+            return null;
+        }
+        PsiFile file = directory.findFile(getClassName(entityClass.getName()) + ".java");
+        if (!(file instanceof PsiJavaFile)) {
+            return null;
+        }
+        PsiClass[] classes = ((PsiJavaFile) file).getClasses();
+        return classes.length > 0 ? classes[0] : null;
+    }
+}
@@ -0,0 +1,156 @@
+package si.dtogenerator;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import si.dtogenerator.template.CodeTemplates;
+import si.dtogenerator.template.TemplateKind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the template context from an entity's {@link EntityModel} and renders the artefact templates.
+ * <p>
+ * Every template sees {@code entity}, {@code quarkus3}, {@code dtoPackage} and {@code beanParamsPackage}. The entity
+ * exposes {@code name}, {@code variableName}, {@code packageName}, {@code fields} and {@code foreignKeys}; each field
+ * exposes {@code name}, {@code type}, {@code capitalizedName}, {@code constantName}, {@code foreignKey},
+ * {@code notNull} and {@code notBlank}.
+ */
+final class ArtefactTemplates {
+
+    private ArtefactTemplates() {
+    }
+
+    static String renderDto(PsiClass entityClass, String className, boolean isReturn, boolean isUpdate) {
+        EntityModel model = EntityModel.of(entityClass);
+        Map<String, Object> context = baseContext(entityClass, model);
+        context.put("className", className);
+        context.put("returnDto", isReturn);
+        context.put("updateDto", isUpdate);
+        context.put("fields", artefactFields(model, isReturn, !isUpdate));
+        return CodeTemplates.get(entityClass.getProject(), TemplateKind.DTO).render(context);
+    }
+
+    static String renderBP(PsiClass entityClass, String className) {
+        EntityModel model = EntityModel.of(entityClass);
+        Map<String, Object> context = baseContext(entityClass, model);
+        context.put("className", className);
+        context.put("fields", artefactFields(model, false, false));
+        return CodeTemplates.get(entityClass.getProject(), TemplateKind.BP).render(context);
+    }
+
+    static String renderDao(PsiClass entityClass, String className) {
+        Map<String, Object> context = baseContext(entityClass, EntityModel.of(entityClass));
+        context.put("className", className);
+        return CodeTemplates.get(entityClass.getProject(), TemplateKind.DAO).render(context);
+    }
+
+    static String renderMapper(PsiClass entityClass, String className, String mappingMethods) {
+        Map<String, Object> context = baseContext(entityClass, EntityModel.of(entityClass));
+        context.put("className", className);
+        context.put("mappingMethods", mappingMethods);
+        return CodeTemplates.get(entityClass.getProject(), TemplateKind.MAPPER).render(context);
+    }
+
+    static String renderMappingMethods(PsiClass entityClass, String dtoName) {
+        Map<String, Object> context = baseContext(entityClass, EntityModel.of(entityClass));
+        boolean isUpdate = dtoName.contains("UpdateDTO");
+        boolean isReturn = dtoName.contains("ReturnDTO");
+        boolean isPut = dtoName.contains("PutDTO");
+        context.put("dtoName", dtoName);
+        context.put("dtoVariableName", JpaEntityUtil.lowercaseFirstLetter(dtoName));
+        context.put("updateDto", isUpdate);
+        context.put("returnDto", isReturn);
+        context.put("putDto", isPut);
+        context.put("newDto", !isUpdate && !isReturn && !isPut);
+        return CodeTemplates.get(entityClass.getProject(), TemplateKind.MAPPING_METHODS).render(context);
+    }
+
+    /**
+     * Parses a rendered class template without adding it to the project.
+     */
+    static PsiClass parseClass(Project project, String className, String text) {
+        PsiFile file = PsiFileFactory.getInstance(project).createFileFromText(className + ".java", JavaFileType.INSTANCE, text);
+        PsiClass[] classes = file instanceof PsiJavaFile ? ((PsiJavaFile) file).getClasses() : PsiClass.EMPTY_ARRAY;
+        return classes.length > 0 ? classes[0] : null;
+    }
+
+    /**
+     * Parses rendered mapping methods in the context of the mapper they are added to.
+     */
+    static PsiMethod[] parseMethods(String methodsText, PsiElement context) {
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(context.getProject());
+        return factory.createClassFromText(methodsText, context).getMethods();
+    }
+
+    private static Map<String, Object> baseContext(PsiClass entityClass, EntityModel model) {
+        PsiFile entityFile = entityClass.getContainingFile();
+        String entityPackage = entityFile instanceof PsiJavaFile ? ((PsiJavaFile) entityFile).getPackageName() : "";
+        // Generated artefacts live in directories next to the entity directory, see GenerateDtoAction
+        String basePackage = StringUtil.getPackageName(entityPackage);
+
+        List<Map<String, Object>> fields = new ArrayList<>();
+        List<Map<String, Object>> foreignKeys = new ArrayList<>();
+        for (EntityModel.Field field : model.getFields()) {
+            Map<String, Object> fieldContext = fieldContext(field.getName(), field.getTypeText(), field.isForeignKey(), field.isNotNull());
+            fields.add(fieldContext);
+            if (field.isForeignKey()) {
+                foreignKeys.add(fieldContext);
+            }
+        }
+
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("name", model.getName());
+        entity.put("variableName", JpaEntityUtil.lowercaseFirstLetter(model.getName()));
+        entity.put("packageName", entityPackage);
+        entity.put("fields", fields);
+        entity.put("foreignKeys", foreignKeys);
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("entity", entity);
+        context.put("quarkus3", GenerateDtoAction.isQuarkus3Project(entityClass.getProject()));
+        context.put("dtoPackage", StringUtil.getQualifiedName(StringUtil.getQualifiedName(basePackage, "service"),
+                JpaEntityUtil.lowercaseFirstLetter(model.getName())));
+        context.put("beanParamsPackage", StringUtil.getQualifiedName(basePackage, "beanParams"));
+        return context;
+    }
+
+    // Fields of a DTO or bean param class. Foreign keys become nested ReturnDTOs or String ids.
+    private static List<Map<String, Object>> artefactFields(EntityModel model, boolean isReturn, boolean validated) {
+        List<Map<String, Object>> fields = new ArrayList<>();
+        for (EntityModel.Field field : model.getFields()) {
+            boolean notNull = validated && field.isNotNull();
+            if (!field.isForeignKey()) {
+                fields.add(fieldContext(field.getName(), field.getTypeText(), false, notNull));
+            } else if (isReturn) {
+                fields.add(fieldContext(field.getName(), field.getTypeText() + "ReturnDTO", true, notNull));
+            } else {
+                fields.add(fieldContext(field.getName() + "Id", "String", true, notNull));
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, Object> fieldContext(String name, String type, boolean foreignKey, boolean notNull) {
+        Map<String, Object> field = new HashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        field.put("capitalizedName", JpaEntityUtil.uppercaseFirstLetter(name));
+        field.put("constantName", JpaEntityUtil.separateByUpperCaseAndAddUnderline(name).toUpperCase());
+        field.put("foreignKey", foreignKey);
+        field.put("notNull", notNull && !"String".equals(type));
+        field.put("notBlank", notNull && "String".equals(type));
+        return field;
+    }
+}
@@ -0,0 +1,51 @@
+package si.dtogenerator;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import si.dtogenerator.template.CodeTemplates;
+import si.dtogenerator.template.TemplateException;
+import si.dtogenerator.template.TemplateKind;
+
+import java.io.IOException;
+
+/**
+ * Copies the bundled templates into the project templates directory so they can be customized. Templates that
+ * already exist in the project are left untouched.
+ */
+public class CopyTemplatesAction extends AnAction {
+
+    @Override
+    public void update(AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile baseDir = project == null ? null : ProjectUtil.guessProjectDir(project);
+        if (baseDir == null) {
+            Messages.showErrorDialog(project, "The project has no directory to copy the templates to.", "DTO Generator");
+            return;
+        }
+
+        try {
+            WriteCommandAction.writeCommandAction(project).run(() -> {
+                VirtualFile templatesDirectory = VfsUtil.createDirectoryIfMissing(baseDir, CodeTemplates.PROJECT_TEMPLATES_PATH);
+                for (TemplateKind kind : TemplateKind.values()) {
+                    if (templatesDirectory.findChild(kind.getFileName()) == null) {
+                        VirtualFile templateFile = templatesDirectory.createChildData(this, kind.getFileName());
+                        VfsUtil.saveText(templateFile, CodeTemplates.loadDefaultTemplate(kind));
+                    }
+                }
+            });
+        } catch (IOException | TemplateException ex) {
+            Messages.showErrorDialog(project, "Could not copy the templates: " + ex.getMessage(), "DTO Generator");
+        }
+    }
+}
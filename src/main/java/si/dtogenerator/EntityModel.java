@@ -0,0 +1,120 @@
+package si.dtogenerator;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Field model of a JPA entity as seen by the generators. Only fields carrying JPA annotations are part of the model.
+ */
+public final class EntityModel {
+
+    private final String name;
+    private final List<Field> fields;
+
+    private EntityModel(String name, List<Field> fields) {
+        this.name = name;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Returns the model of the given entity. The model is cached on the entity class and rebuilt when the entity's
+     * file changes, which only walks the entity's fields. Models are compared by value, so callers can tell whether an
+     * edit changed the model at all.
+     */
+    public static EntityModel of(PsiClass entityClass) {
+        return CachedValuesManager.getCachedValue(entityClass, () ->
+                CachedValueProvider.Result.create(build(entityClass), entityClass.getContainingFile()));
+    }
+
+    private static EntityModel build(PsiClass entityClass) {
+        List<Field> fields = new ArrayList<>();
+        for (PsiField field : entityClass.getFields()) {
+            if (JpaEntityUtil.hasJpaAnnotations(field)) {
+                fields.add(new Field(field.getName(), field.getType().getPresentableText(),
+                        JpaEntityUtil.isForeignKey(field), JpaEntityUtil.isNotNullColumn(field)));
+            }
+        }
+        return new EntityModel(entityClass.getName(), fields);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityModel)) {
+            return false;
+        }
+        EntityModel that = (EntityModel) o;
+        return Objects.equals(name, that.name) && fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, fields);
+    }
+
+    public static final class Field {
+
+        private final String name;
+        private final String typeText;
+        private final boolean foreignKey;
+        private final boolean notNull;
+
+        Field(String name, String typeText, boolean foreignKey, boolean notNull) {
+            this.name = name;
+            this.typeText = typeText;
+            this.foreignKey = foreignKey;
+            this.notNull = notNull;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTypeText() {
+            return typeText;
+        }
+
+        public boolean isForeignKey() {
+            return foreignKey;
+        }
+
+        public boolean isNotNull() {
+            return notNull;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Field)) {
+                return false;
+            }
+            Field that = (Field) o;
+            return foreignKey == that.foreignKey && notNull == that.notNull
+                    && name.equals(that.name) && typeText.equals(that.typeText);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, typeText, foreignKey, notNull);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package si.dtogenerator;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+
+import java.util.Arrays;
+
+public final class JpaEntityUtil {
+
+    private static final String[] JPA_FIELD_ANNOTATIONS = {"jakarta.persistence.Id", "jakarta.persistence.Column",
+            "jakarta.persistence.ManyToOne", "jakarta.persistence.OneToMany",
+            "jakarta.persistence.ManyToMany", "jakarta.persistence.OneToOne",
+            "javax.persistence.Id", "javax.persistence.Column",
+            "javax.persistence.ManyToOne", "javax.persistence.OneToMany",
+            "javax.persistence.ManyToMany", "javax.persistence.OneToOne"};
+
+    private JpaEntityUtil() {
+    }
+
+    public static boolean isJpaEntity(PsiClass psiClass) {
+        if (psiClass == null) {
+            return false;
+        }
+        PsiAnnotation entityAnnotation = psiClass.getAnnotation("jakarta.persistence.Entity");
+        if (entityAnnotation == null) {
+            entityAnnotation = psiClass.getAnnotation("javax.persistence.Entity");
+        }
+        return entityAnnotation != null;
+    }
+
+    // Helper method to determine if a field represents a foreign key
+    public static boolean isForeignKey(PsiField field) {
+        // This is a basic check based on JPA annotations. Adjust as needed for your project.
+        return Arrays.stream(field.getAnnotations())
+                .anyMatch(annotation -> "jakarta.persistence.ManyToOne".equals(annotation.getQualifiedName()) ||
+                        "jakarta.persistence.OneToOne".equals(annotation.getQualifiedName()) ||
+                        "javax.persistence.ManyToOne".equals(annotation.getQualifiedName()) ||
+                        "javax.persistence.OneToOne".equals(annotation.getQualifiedName()));
+    }
+
+    public static boolean hasJpaAnnotations(PsiField field) {
+        for (PsiAnnotation annotation : field.getAnnotations()) {
+            String annotationQualifiedName = annotation.getQualifiedName();
+            for (String jpaAnnotation : JPA_FIELD_ANNOTATIONS) {
+                if (jpaAnnotation.equals(annotationQualifiedName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // A column is treated as required when it is declared with @Column(nullable = false)
+    public static boolean isNotNullColumn(PsiField field) {
+        PsiAnnotation columnAnnotation = field.getAnnotation("jakarta.persistence.Column");
+        if (columnAnnotation == null) {
+            columnAnnotation = field.getAnnotation("javax.persistence.Column");
+        }
+        if (columnAnnotation != null) {
+            PsiAnnotationMemberValue nullableValue = columnAnnotation.findAttributeValue("nullable");
+            return nullableValue != null && "false".equals(nullableValue.getText());
+        }
+        return false;
+    }
+
+    public static String lowercaseFirstLetter(String str) {
+        if (str == null || str.isEmpty()) {
+            return str; // return the original string if it's null or empty
+        }
+        return Character.toLowerCase(str.charAt(0)) + str.substring(1);
+    }
+
+    public static String uppercaseFirstLetter(String str) {
+        if (str == null || str.isEmpty()) {
+            return str; // return the original string if it's null or empty
+        }
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+
+    public static String separateByUpperCaseAndAddUnderline(String input) {
+        StringBuilder result = new StringBuilder();
+        int start = 0;
+        for (int i = 1; i < input.length(); i++) {
+            if (Character.isUpperCase(input.charAt(i))) {
+                result.append(input, start, i);
+                result.append("_");
+                start = i;
+            }
+        }
+        result.append(input.substring(start));
+
+        return result.toString();
+    }
+}
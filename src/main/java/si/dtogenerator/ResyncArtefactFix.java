@@ -0,0 +1,311 @@
+package si.dtogenerator;
+
+import com.intellij.codeInsight.FileModificationService;
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatementBase;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import si.dtogenerator.template.TemplateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings a generated artefact back in line with its entity as the templates render it now: adds missing fields,
+ * accessors and mapping methods, and regenerates fields whose type changed and DAO methods that no longer match.
+ * Anything the templates would not have produced, such as hand-added fields and constructors, is left untouched.
+ */
+public class ResyncArtefactFix implements LocalQuickFix {
+
+    private final ArtefactKind kind;
+    private final String className;
+
+    public ResyncArtefactFix(ArtefactKind kind, String className) {
+        this.kind = kind;
+        this.className = className;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "Resync " + className + " with entity";
+    }
+
+    @Override
+    public @NotNull String getFamilyName() {
+        return "Resync generated artefact with entity";
+    }
+
+    @Override
+    public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull ProblemDescriptor previewDescriptor) {
+        // The fix modifies the artefact, not the entity file the problem is reported in
+        return IntentionPreviewInfo.EMPTY;
+    }
+
+    @Override
+    public PsiElement getElementToMakeWritable(@NotNull PsiFile currentFile) {
+        if (currentFile instanceof PsiJavaFile) {
+            for (PsiClass psiClass : ((PsiJavaFile) currentFile).getClasses()) {
+                PsiClass artefactClass = JpaEntityUtil.isJpaEntity(psiClass) ? kind.findClass(psiClass) : null;
+                if (artefactClass != null) {
+                    return artefactClass.getContainingFile();
+                }
+            }
+        }
+        return currentFile;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        // Templates are rendered first, so a template error can be reported before anything is modified
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiClass entityClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class, false);
+        if (entityClass == null) {
+            return;
+        }
+        PsiClass artefactClass = kind.findClass(entityClass);
+        if (artefactClass == null) {
+            return;
+        }
+
+        Map<String, String> templateTexts;
+        try {
+            templateTexts = renderTemplates(entityClass, artefactClass);
+        } catch (TemplateException ex) {
+            Messages.showErrorDialog(project, ex.getMessage(), "DTO Generator Template Error");
+            return;
+        }
+        if (!FileModificationService.getInstance().preparePsiElementForWrite(artefactClass)) {
+            return;
+        }
+
+        WriteCommandAction.runWriteCommandAction(project, getName(), null, () -> {
+            switch (kind) {
+                case RETURN_DTO:
+                case BP:
+                    resyncFields(artefactClass, templateTexts.get(artefactClass.getName()));
+                    break;
+                case DAO:
+                    resyncDao(entityClass, artefactClass, templateTexts.get(artefactClass.getName()));
+                    break;
+                case MAPPER:
+                    resyncMapper(artefactClass, templateTexts);
+                    break;
+            }
+        }, artefactClass.getContainingFile());
+    }
+
+    // Rendered template text keyed by artefact class name, or by DTO name for the mapping methods of a mapper
+    private Map<String, String> renderTemplates(PsiClass entityClass, PsiClass artefactClass) {
+        if (kind == ArtefactKind.MAPPER) {
+            return StaleArtefactChecker.renderMappingMethods(entityClass);
+        }
+        return Collections.singletonMap(artefactClass.getName(),
+                StaleArtefactChecker.renderTemplate(kind, entityClass, artefactClass.getName()));
+    }
+
+    private void resyncFields(PsiClass artefactClass, String templateText) {
+        PsiClass templateClass = ArtefactTemplates.parseClass(artefactClass.getProject(), artefactClass.getName(), templateText);
+        if (templateClass == null) {
+            return;
+        }
+        Map<String, String> expectedFields = StaleArtefactChecker.instanceFields(templateClass);
+        Map<String, String> actualFields = StaleArtefactChecker.instanceFields(artefactClass);
+
+        // The generated all-args constructor takes the generated fields in declaration order; others are hand-written
+        List<String> generatedFieldNames = new ArrayList<>();
+        for (String actualField : actualFields.keySet()) {
+            if (expectedFields.containsKey(actualField)) {
+                generatedFieldNames.add(actualField);
+            }
+        }
+        PsiMethod templateConstructor = null;
+        for (PsiMethod constructor : templateClass.getConstructors()) {
+            if (parameterNames(constructor).equals(new ArrayList<>(expectedFields.keySet()))) {
+                templateConstructor = constructor;
+            }
+        }
+        if (templateConstructor != null && !generatedFieldNames.isEmpty()) {
+            for (PsiMethod constructor : artefactClass.getConstructors()) {
+                if (parameterNames(constructor).equals(generatedFieldNames)) {
+                    constructor.replace(templateConstructor);
+                    break;
+                }
+            }
+        }
+
+        for (Map.Entry<String, String> expected : expectedFields.entrySet()) {
+            String actualType = actualFields.get(expected.getKey());
+            if (expected.getValue().equals(actualType)) {
+                continue;
+            }
+            PsiField templateField = templateClass.findFieldByName(expected.getKey(), false);
+            if (templateField == null) {
+                continue;
+            }
+            List<PsiMethod> templateAccessors = accessors(templateClass, templateField);
+
+            // Fields whose type changed on the entity are regenerated together with their accessors
+            if (actualType != null) {
+                deleteFieldWithAccessors(artefactClass, expected.getKey(), templateAccessors);
+            }
+
+            // Copy the field and its accessors as the template renders them, keeping the fields above the methods
+            PsiElement fieldAnchor = lastInstanceField(artefactClass);
+            if (fieldAnchor != null) {
+                artefactClass.addAfter(templateField, fieldAnchor);
+            } else {
+                artefactClass.add(templateField);
+            }
+            for (PsiMethod templateAccessor : templateAccessors) {
+                if (StaleArtefactChecker.findMatchingMethod(artefactClass, templateAccessor) == null) {
+                    artefactClass.add(templateAccessor);
+                }
+            }
+        }
+
+        copyImports(templateClass, artefactClass);
+    }
+
+    // The last instance field of the class, or its opening brace when it has none
+    private PsiElement lastInstanceField(PsiClass artefactClass) {
+        PsiElement anchor = artefactClass.getLBrace();
+        for (PsiField field : artefactClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC)) {
+                anchor = field;
+            }
+        }
+        return anchor;
+    }
+
+    // Methods of the template class other than constructors that use the field, i.e. its getter and setter
+    private List<PsiMethod> accessors(PsiClass templateClass, PsiField templateField) {
+        List<PsiMethod> accessors = new ArrayList<>();
+        for (PsiMethod method : templateClass.getMethods()) {
+            if (method.isConstructor()) {
+                continue;
+            }
+            for (PsiReferenceExpression reference : PsiTreeUtil.findChildrenOfType(method, PsiReferenceExpression.class)) {
+                if (templateField.equals(reference.resolve())) {
+                    accessors.add(method);
+                    break;
+                }
+            }
+        }
+        return accessors;
+    }
+
+    private void deleteFieldWithAccessors(PsiClass artefactClass, String fieldName, List<PsiMethod> templateAccessors) {
+        PsiField field = artefactClass.findFieldByName(fieldName, false);
+        if (field != null) {
+            field.delete();
+        }
+        // The accessor parameters changed with the field type, so they are matched by name and parameter count
+        for (PsiMethod templateAccessor : templateAccessors) {
+            for (PsiMethod method : artefactClass.findMethodsByName(templateAccessor.getName(), false)) {
+                if (method.getParameterList().getParametersCount() == templateAccessor.getParameterList().getParametersCount()) {
+                    method.delete();
+                }
+            }
+        }
+    }
+
+    private List<String> parameterNames(PsiMethod constructor) {
+        List<String> names = new ArrayList<>();
+        for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+            names.add(parameter.getName());
+        }
+        return names;
+    }
+
+    private void resyncDao(PsiClass entityClass, PsiClass daoClass, String templateText) {
+        PsiClass templateClass = ArtefactTemplates.parseClass(daoClass.getProject(), daoClass.getName(), templateText);
+        if (templateClass == null) {
+            return;
+        }
+
+        // Generated methods whose parameters or predicates no longer match are regenerated, missing ones are added
+        String metamodelName = entityClass.getName() + "_";
+        for (PsiMethod templateMethod : templateClass.getMethods()) {
+            if (templateMethod.isConstructor()) {
+                continue;
+            }
+            PsiMethod existing = StaleArtefactChecker.findMatchingMethod(daoClass, templateMethod);
+            if (existing != null) {
+                if (!StaleArtefactChecker.hasSamePredicates(existing, templateMethod, metamodelName)) {
+                    existing.replace(templateMethod);
+                }
+                continue;
+            }
+            PsiMethod generated = StaleArtefactChecker.findGeneratedMethod(daoClass, templateMethod);
+            if (generated != null) {
+                generated.replace(templateMethod);
+                continue;
+            }
+            // Hand-written overloads are kept, the generated method goes next to them
+            PsiMethod[] overloads = daoClass.findMethodsByName(templateMethod.getName(), false);
+            if (overloads.length > 0) {
+                daoClass.addAfter(templateMethod, overloads[overloads.length - 1]);
+            } else {
+                daoClass.add(templateMethod);
+            }
+        }
+
+        copyImports(templateClass, daoClass);
+    }
+
+    // Adds the template's imports the artefact does not have yet, then drops whatever is unused
+    private void copyImports(PsiClass templateClass, PsiClass artefactClass) {
+        PsiImportList templateImports = ((PsiJavaFile) templateClass.getContainingFile()).getImportList();
+        PsiImportList artefactImports = ((PsiJavaFile) artefactClass.getContainingFile()).getImportList();
+        if (templateImports == null || artefactImports == null) {
+            return;
+        }
+        for (PsiImportStatementBase importStatement : templateImports.getAllImportStatements()) {
+            if (!containsImport(artefactImports, importStatement.getText())) {
+                artefactImports.add(importStatement);
+            }
+        }
+        JavaCodeStyleManager.getInstance(artefactClass.getProject()).optimizeImports(artefactClass.getContainingFile());
+    }
+
+    private boolean containsImport(PsiImportList importList, String importText) {
+        for (PsiImportStatementBase importStatement : importList.getAllImportStatements()) {
+            if (importStatement.getText().equals(importText)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void resyncMapper(PsiClass mapperClass, Map<String, String> mappingMethodTexts) {
+        for (String mappingMethodsText : mappingMethodTexts.values()) {
+            for (PsiMethod mappingMethod : ArtefactTemplates.parseMethods(mappingMethodsText, mapperClass)) {
+                if (StaleArtefactChecker.findMatchingMethod(mapperClass, mappingMethod) == null) {
+                    mapperClass.add(mappingMethod);
+                }
+            }
+        }
+    }
+}
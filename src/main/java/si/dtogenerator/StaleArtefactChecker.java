@@ -0,0 +1,318 @@
+package si.dtogenerator;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import si.dtogenerator.template.CodeTemplates;
+import si.dtogenerator.template.TemplateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares the artefacts generated from an entity with what the templates render for the entity today. The
+ * generators skip artefacts that already exist, so this is the only place that notices when an entity has drifted
+ * from them.
+ */
+public final class StaleArtefactChecker {
+
+    private static final String[] MAPPED_DTO_PREFIXES = {"New", "", "", ""};
+    private static final String[] MAPPED_DTO_SUFFIXES = {"DTO", "ReturnDTO", "PutDTO", "UpdateDTO"};
+
+    // The last comparison of an entity, reused while none of its inputs changed
+    private static final Key<Comparison> LAST_COMPARISON = Key.create("DTOGenerator.lastStaleArtefactComparison");
+
+    private StaleArtefactChecker() {
+    }
+
+    /**
+     * Returns the stale artefacts of the given entity. Artefacts that were not generated yet, or whose template
+     * cannot be rendered, are not reported.
+     * <p>
+     * The result is cached on the entity class. The entity file changes on every keystroke, including edits in method
+     * bodies and comments, so the cache only re-checks the inputs of the comparison: the templates are rendered and
+     * compared again only when the entity's field model, an artefact file, the templates or the set of artefact files
+     * changed.
+     */
+    public static List<StaleArtefact> getStaleArtefacts(PsiClass entityClass) {
+        return CachedValuesManager.getCachedValue(entityClass, () -> {
+            List<Object> dependencies = new ArrayList<>();
+            dependencies.add(entityClass.getContainingFile());
+            dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+            ModificationTracker templateTracker = CodeTemplates.getModificationTracker(entityClass.getProject());
+            dependencies.add(templateTracker);
+
+            Map<ArtefactKind, PsiClass> artefactClasses = new EnumMap<>(ArtefactKind.class);
+            List<Long> stamps = new ArrayList<>();
+            stamps.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS.getModificationCount());
+            stamps.add(templateTracker.getModificationCount());
+            stamps.add(GenerateDtoAction.isQuarkus3Project(entityClass.getProject()) ? 1L : 0L);
+            for (ArtefactKind kind : ArtefactKind.values()) {
+                PsiClass artefactClass = kind.findClass(entityClass);
+                if (artefactClass != null) {
+                    artefactClasses.put(kind, artefactClass);
+                    dependencies.add(artefactClass.getContainingFile());
+                }
+                stamps.add(artefactClass == null ? -1L : artefactClass.getContainingFile().getModificationStamp());
+            }
+
+            EntityModel model = EntityModel.of(entityClass);
+            Comparison comparison = entityClass.getUserData(LAST_COMPARISON);
+            if (comparison == null || !comparison.model.equals(model) || !comparison.stamps.equals(stamps)) {
+                comparison = new Comparison(model, stamps, compare(entityClass, artefactClasses));
+                entityClass.putUserData(LAST_COMPARISON, comparison);
+            }
+            return CachedValueProvider.Result.create(comparison.staleArtefacts, dependencies.toArray());
+        });
+    }
+
+    private static List<StaleArtefact> compare(PsiClass entityClass, Map<ArtefactKind, PsiClass> artefactClasses) {
+        List<StaleArtefact> staleArtefacts = new ArrayList<>();
+        for (Map.Entry<ArtefactKind, PsiClass> artefact : artefactClasses.entrySet()) {
+            List<String> differences;
+            try {
+                differences = findDifferences(artefact.getKey(), entityClass, artefact.getValue());
+            } catch (TemplateException e) {
+                // A broken template is reported when generating, not as a stale artefact on every entity
+                continue;
+            }
+            if (!differences.isEmpty()) {
+                staleArtefacts.add(new StaleArtefact(artefact.getKey(), artefact.getValue().getName(), differences));
+            }
+        }
+        return Collections.unmodifiableList(staleArtefacts);
+    }
+
+    private static List<String> findDifferences(ArtefactKind kind, PsiClass entityClass, PsiClass artefactClass) {
+        if (kind == ArtefactKind.MAPPER) {
+            return findMapperDifferences(entityClass, artefactClass);
+        }
+        PsiClass templateClass = ArtefactTemplates.parseClass(artefactClass.getProject(), artefactClass.getName(),
+                renderTemplate(kind, entityClass, artefactClass.getName()));
+        if (templateClass == null) {
+            return Collections.emptyList();
+        }
+        return kind == ArtefactKind.DAO
+                ? findDaoDifferences(entityClass, templateClass, artefactClass)
+                : findFieldDifferences(instanceFields(templateClass), artefactClass);
+    }
+
+    /**
+     * Renders the template an artefact class is generated from, as the generator would render it for the entity now.
+     */
+    static String renderTemplate(ArtefactKind kind, PsiClass entityClass, String className) {
+        switch (kind) {
+            case RETURN_DTO:
+                return ArtefactTemplates.renderDto(entityClass, className, true, false);
+            case BP:
+                return ArtefactTemplates.renderBP(entityClass, className);
+            case DAO:
+                return ArtefactTemplates.renderDao(entityClass, className);
+            default:
+                throw new IllegalArgumentException("No class template for " + kind);
+        }
+    }
+
+    /**
+     * Renders the mapping methods of every DTO generated for the entity, keyed by DTO name.
+     */
+    static Map<String, String> renderMappingMethods(PsiClass entityClass) {
+        Map<String, String> mappingMethods = new LinkedHashMap<>();
+        PsiDirectory dtoDirectory = ArtefactKind.RETURN_DTO.findDirectory(entityClass);
+        if (dtoDirectory == null) {
+            return mappingMethods;
+        }
+        for (int i = 0; i < MAPPED_DTO_SUFFIXES.length; i++) {
+            String dtoName = MAPPED_DTO_PREFIXES[i] + entityClass.getName() + MAPPED_DTO_SUFFIXES[i];
+            if (dtoDirectory.findFile(dtoName + ".java") != null) {
+                mappingMethods.put(dtoName, ArtefactTemplates.renderMappingMethods(entityClass, dtoName));
+            }
+        }
+        return mappingMethods;
+    }
+
+    /**
+     * Instance field names and types of a class, in declaration order.
+     */
+    static Map<String, String> instanceFields(PsiClass psiClass) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (PsiField field : psiClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC)) {
+                fields.put(field.getName(), field.getType().getPresentableText());
+            }
+        }
+        return fields;
+    }
+
+    private static List<String> findFieldDifferences(Map<String, String> expectedFields, PsiClass artefactClass) {
+        Map<String, String> actualFields = instanceFields(artefactClass);
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, String> expected : expectedFields.entrySet()) {
+            String actualType = actualFields.get(expected.getKey());
+            if (actualType == null) {
+                differences.add("missing field '" + expected.getKey() + "'");
+            } else if (!actualType.equals(expected.getValue())) {
+                differences.add("field '" + expected.getKey() + "' should be of type " + expected.getValue());
+            }
+        }
+        // Fields the generator would not produce are left alone: generated classes are user-owned once created and
+        // a field removed from the entity cannot be told apart from one that was added by hand
+        return differences;
+    }
+
+    private static List<String> findDaoDifferences(PsiClass entityClass, PsiClass templateClass, PsiClass daoClass) {
+        String metamodelName = entityClass.getName() + "_";
+        List<String> differences = new ArrayList<>();
+        for (PsiMethod templateMethod : templateClass.getMethods()) {
+            if (templateMethod.isConstructor()) {
+                continue;
+            }
+            PsiMethod method = findMatchingMethod(daoClass, templateMethod);
+            if (method == null) {
+                method = findGeneratedMethod(daoClass, templateMethod);
+                if (method == null) {
+                    differences.add("missing method '" + templateMethod.getName() + "'");
+                    continue;
+                }
+                differences.add("parameters of '" + templateMethod.getName() + "' do not match the entity's foreign keys");
+            }
+            if (!hasSamePredicates(method, templateMethod, metamodelName)) {
+                differences.add("predicates of '" + templateMethod.getName() + "' do not match the entity's fields");
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Returns the method of the given class with the same name and parameter types as the template method.
+     */
+    static PsiMethod findMatchingMethod(PsiClass psiClass, PsiMethod templateMethod) {
+        List<String> parameterTypes = parameterTypes(templateMethod);
+        for (PsiMethod method : psiClass.findMethodsByName(templateMethod.getName(), false)) {
+            if (parameterTypes(method).equals(parameterTypes)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the method of the given class that was generated from the template method but whose later parameters
+     * changed since, i.e. one with the same name whose first parameter, the bean params, has the template's type.
+     * Other methods with that name are overloads added by hand.
+     */
+    static PsiMethod findGeneratedMethod(PsiClass psiClass, PsiMethod templateMethod) {
+        List<String> templateParameterTypes = parameterTypes(templateMethod);
+        if (templateParameterTypes.isEmpty()) {
+            return null;
+        }
+        for (PsiMethod method : psiClass.findMethodsByName(templateMethod.getName(), false)) {
+            List<String> parameterTypes = parameterTypes(method);
+            if (!parameterTypes.isEmpty() && parameterTypes.get(0).equals(templateParameterTypes.get(0))) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> parameterTypes(PsiMethod method) {
+        List<String> types = new ArrayList<>();
+        for (PsiParameter parameter : method.getParameterList().getParameters()) {
+            types.add(parameter.getType().getPresentableText());
+        }
+        return types;
+    }
+
+    /**
+     * Returns whether a DAO method references the same metamodel attributes as the template method.
+     */
+    static boolean hasSamePredicates(PsiMethod method, PsiMethod templateMethod, String metamodelName) {
+        return referencedAttributes(method, metamodelName).equals(referencedAttributes(templateMethod, metamodelName));
+    }
+
+    // Collects the metamodel constants (e.g. Entity_.FIELD_NAME) referenced by the method body
+    private static Set<String> referencedAttributes(PsiMethod method, String metamodelName) {
+        Set<String> attributes = new LinkedHashSet<>();
+        PsiCodeBlock body = method.getBody();
+        if (body == null) {
+            return attributes;
+        }
+        for (PsiReferenceExpression reference : PsiTreeUtil.findChildrenOfType(body, PsiReferenceExpression.class)) {
+            PsiElement qualifier = reference.getQualifier();
+            if (qualifier instanceof PsiReferenceExpression
+                    && metamodelName.equals(((PsiReferenceExpression) qualifier).getReferenceName())) {
+                attributes.add(reference.getReferenceName());
+            }
+        }
+        return attributes;
+    }
+
+    private static List<String> findMapperDifferences(PsiClass entityClass, PsiClass mapperClass) {
+        List<String> differences = new ArrayList<>();
+        for (String mappingMethodsText : renderMappingMethods(entityClass).values()) {
+            for (PsiMethod templateMethod : ArtefactTemplates.parseMethods(mappingMethodsText, mapperClass)) {
+                if (findMatchingMethod(mapperClass, templateMethod) == null) {
+                    differences.add("missing mapping method '" + templateMethod.getName() + "'");
+                }
+            }
+        }
+        return differences;
+    }
+
+    private static final class Comparison {
+
+        private final EntityModel model;
+        // VFS structure, template and Quarkus version stamps followed by the artefact file stamps
+        private final List<Long> stamps;
+        private final List<StaleArtefact> staleArtefacts;
+
+        Comparison(EntityModel model, List<Long> stamps, List<StaleArtefact> staleArtefacts) {
+            this.model = model;
+            this.stamps = stamps;
+            this.staleArtefacts = staleArtefacts;
+        }
+    }
+
+    public static final class StaleArtefact {
+
+        private final ArtefactKind kind;
+        private final String className;
+        private final List<String> differences;
+
+        StaleArtefact(ArtefactKind kind, String className, List<String> differences) {
+            this.kind = kind;
+            this.className = className;
+            this.differences = Collections.unmodifiableList(differences);
+        }
+
+        public ArtefactKind getKind() {
+            return kind;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public List<String> getDifferences() {
+            return differences;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package si.dtogenerator;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiIdentifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports generated artefacts (ReturnDTO, BP, DAO, Mapper) that no longer match their JPA entity.
+ */
+public class StaleArtefactInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    @Override
+    public ProblemDescriptor[] checkClass(@NotNull PsiClass aClass, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        PsiIdentifier nameIdentifier = aClass.getNameIdentifier();
+        if (nameIdentifier == null || !JpaEntityUtil.isJpaEntity(aClass)) {
+            return ProblemDescriptor.EMPTY_ARRAY;
+        }
+
+        List<ProblemDescriptor> problems = new ArrayList<>();
+        for (StaleArtefactChecker.StaleArtefact staleArtefact : StaleArtefactChecker.getStaleArtefacts(aClass)) {
+            String description = staleArtefact.getClassName() + " is out of sync with " + aClass.getName() + ": "
+                    + String.join(", ", staleArtefact.getDifferences());
+            problems.add(manager.createProblemDescriptor(nameIdentifier, description,
+                    new ResyncArtefactFix(staleArtefact.getKind(), staleArtefact.getClassName()),
+                    ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly));
+        }
+        return problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+}
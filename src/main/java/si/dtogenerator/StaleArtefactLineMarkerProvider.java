@@ -0,0 +1,79 @@
+package si.dtogenerator;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProviderDescriptor;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiIdentifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Marks the name of a JPA entity in the gutter when any of its generated artefacts is stale.
+ */
+public class StaleArtefactLineMarkerProvider extends LineMarkerProviderDescriptor {
+
+    @Override
+    public @NotNull String getName() {
+        return "Stale generated DTO artefacts";
+    }
+
+    @Override
+    public @NotNull Icon getIcon() {
+        return AllIcons.General.Warning;
+    }
+
+    @Override
+    public @Nullable LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
+        // The comparison looks up and parses other files, so markers are only collected in the slow pass
+        return null;
+    }
+
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements,
+                                       @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        for (PsiElement element : elements) {
+            ProgressManager.checkCanceled();
+            LineMarkerInfo<?> lineMarker = createLineMarker(element);
+            if (lineMarker != null) {
+                result.add(lineMarker);
+            }
+        }
+    }
+
+    private @Nullable LineMarkerInfo<?> createLineMarker(@NotNull PsiElement element) {
+        // Line markers must be registered on leaf elements, so the class name identifier is used
+        if (!(element instanceof PsiIdentifier) || !(element.getParent() instanceof PsiClass)) {
+            return null;
+        }
+        PsiClass entityClass = (PsiClass) element.getParent();
+        if (entityClass.getNameIdentifier() != element || !JpaEntityUtil.isJpaEntity(entityClass)) {
+            return null;
+        }
+
+        List<StaleArtefactChecker.StaleArtefact> staleArtefacts = StaleArtefactChecker.getStaleArtefacts(entityClass);
+        if (staleArtefacts.isEmpty()) {
+            return null;
+        }
+        return new LineMarkerInfo<>(element, element.getTextRange(), getIcon(),
+                identifier -> buildTooltip(staleArtefacts), null,
+                GutterIconRenderer.Alignment.RIGHT, this::getName);
+    }
+
+    private static String buildTooltip(List<StaleArtefactChecker.StaleArtefact> staleArtefacts) {
+        StringBuilder tooltip = new StringBuilder("<html>Generated artefacts out of sync:");
+        for (StaleArtefactChecker.StaleArtefact staleArtefact : staleArtefacts) {
+            tooltip.append("<br><b>").append(staleArtefact.getClassName()).append("</b>: ")
+                    .append(StringUtil.escapeXmlEntities(String.join(", ", staleArtefact.getDifferences())));
+        }
+        return tooltip.append("</html>").toString();
+    }
+}
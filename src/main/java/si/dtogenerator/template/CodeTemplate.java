@@ -0,0 +1,208 @@
+package si.dtogenerator.template;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed and compiled code template. Instances are immutable and can be rendered any number of times, so a
+ * template only has to be parsed once no matter how many entities it is rendered for.
+ *
+ * @see TemplateParser
+ */
+public final class CodeTemplate {
+
+    private final String name;
+    private final List<Node> nodes;
+
+    CodeTemplate(String name, List<Node> nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renders the template against the given context. The result is parsed into PSI by the caller, so it is built
+     * in memory rather than streamed.
+     */
+    public String render(Map<String, ?> context) {
+        StringBuilder out = new StringBuilder();
+        Scope scope = new Scope(null, context);
+        for (Node node : nodes) {
+            node.render(scope, out);
+        }
+        return out.toString();
+    }
+
+    interface Node {
+        void render(Scope scope, StringBuilder out);
+    }
+
+    static final class TextNode implements Node {
+
+        private final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    static final class VariableNode implements Node {
+
+        private final Path path;
+
+        VariableNode(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = path.resolve(scope);
+            if (value == null) {
+                throw path.error("has no value");
+            }
+            out.append(String.valueOf(value));
+        }
+    }
+
+    static final class IfNode implements Node {
+
+        private final Path condition;
+        private final boolean negated;
+        private final List<Node> thenNodes;
+        private final List<Node> elseNodes;
+
+        IfNode(Path condition, boolean negated, List<Node> thenNodes, List<Node> elseNodes) {
+            this.condition = condition;
+            this.negated = negated;
+            this.thenNodes = thenNodes;
+            this.elseNodes = elseNodes;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            List<Node> branch = isTruthy(condition.resolve(scope)) != negated ? thenNodes : elseNodes;
+            for (Node node : branch) {
+                node.render(scope, out);
+            }
+        }
+
+        private static boolean isTruthy(Object value) {
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            if (value instanceof CharSequence) {
+                return ((CharSequence) value).length() > 0;
+            }
+            if (value instanceof Collection) {
+                return !((Collection<?>) value).isEmpty();
+            }
+            return value != null;
+        }
+    }
+
+    static final class ForeachNode implements Node {
+
+        private final String variable;
+        private final Path items;
+        private final List<Node> body;
+
+        ForeachNode(String variable, Path items, List<Node> body) {
+            this.variable = variable;
+            this.items = items;
+            this.body = body;
+        }
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = items.resolve(scope);
+            if (!(value instanceof Collection)) {
+                throw items.error("is not a list");
+            }
+            Collection<?> collection = (Collection<?>) value;
+            int index = 0;
+            for (Object item : collection) {
+                Map<String, Object> loop = new HashMap<>();
+                loop.put("index", index);
+                loop.put("first", index == 0);
+                loop.put("last", index == collection.size() - 1);
+
+                Map<String, Object> variables = new HashMap<>();
+                variables.put(variable, item);
+                variables.put("loop", loop);
+
+                Scope loopScope = new Scope(scope, variables);
+                for (Node node : body) {
+                    node.render(loopScope, out);
+                }
+                index++;
+            }
+        }
+    }
+
+    /**
+     * A dotted variable reference such as {@code field.name}, resolved against nested maps.
+     */
+    static final class Path {
+
+        private final String templateName;
+        private final int line;
+        private final String[] segments;
+
+        Path(String templateName, int line, String expression) {
+            this.templateName = templateName;
+            this.line = line;
+            this.segments = expression.split("\\.");
+        }
+
+        Object resolve(Scope scope) {
+            if (!scope.contains(segments[0])) {
+                throw error("is not defined");
+            }
+            Object value = scope.get(segments[0]);
+            for (int i = 1; i < segments.length; i++) {
+                if (!(value instanceof Map) || !((Map<?, ?>) value).containsKey(segments[i])) {
+                    throw error("is not defined");
+                }
+                value = ((Map<?, ?>) value).get(segments[i]);
+            }
+            return value;
+        }
+
+        TemplateException error(String problem) {
+            return new TemplateException("Variable '" + String.join(".", segments) + "' " + problem
+                    + " (template " + templateName + ", line " + line + ")");
+        }
+    }
+
+    static final class Scope {
+
+        private final Scope parent;
+        private final Map<String, ?> variables;
+
+        Scope(Scope parent, Map<String, ?> variables) {
+            this.parent = parent;
+            this.variables = variables;
+        }
+
+        boolean contains(String name) {
+            return variables.containsKey(name) || (parent != null && parent.contains(name));
+        }
+
+        Object get(String name) {
+            if (variables.containsKey(name)) {
+                return variables.get(name);
+            }
+            return parent != null ? parent.get(name) : null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package si.dtogenerator.template;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Looks up the compiled template of each kind for a project. Project templates in {@link #PROJECT_TEMPLATES_PATH}
+ * take precedence over the defaults bundled with the plugin.
+ * <p>
+ * Compiled templates are cached on the project and only re-parsed when a file in the templates directory changes
+ * (see {@link TemplateFileListener}) or the open template document is edited (see {@link TemplateDocumentListener}).
+ */
+public final class CodeTemplates {
+
+    public static final String PROJECT_TEMPLATES_PATH = ".dto-generator/templates";
+
+    private CodeTemplates() {
+    }
+
+    /**
+     * Tracks changes to the project's templates, for caches of anything derived from rendered templates.
+     */
+    public static ModificationTracker getModificationTracker(Project project) {
+        return TemplateModificationTracker.getInstance(project);
+    }
+
+    public static CodeTemplate get(Project project, TemplateKind kind) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, kind.getCacheKey(), () -> {
+            ModificationTracker tracker = getModificationTracker(project);
+            VirtualFile file = findProjectTemplate(project, kind);
+            if (file == null) {
+                return CachedValueProvider.Result.create(
+                        TemplateParser.parse(kind.getFileName(), loadDefaultTemplate(kind)), tracker);
+            }
+
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            if (document == null) {
+                return CachedValueProvider.Result.create(
+                        TemplateParser.parse(file.getPath(), loadText(file)), tracker);
+            }
+            return CachedValueProvider.Result.create(
+                    TemplateParser.parse(file.getPath(), document.getText()), tracker, document);
+        }, false);
+    }
+
+    public static VirtualFile findProjectTemplate(Project project, TemplateKind kind) {
+        VirtualFile baseDir = ProjectUtil.guessProjectDir(project);
+        return baseDir == null ? null : baseDir.findFileByRelativePath(PROJECT_TEMPLATES_PATH + "/" + kind.getFileName());
+    }
+
+    public static String loadDefaultTemplate(TemplateKind kind) {
+        try (InputStream stream = CodeTemplates.class.getResourceAsStream("/templates/" + kind.getFileName())) {
+            if (stream == null) {
+                throw new TemplateException("Default template " + kind.getFileName() + " is missing");
+            }
+            return StringUtil.convertLineSeparators(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new TemplateException("Could not read default template " + kind.getFileName(), e);
+        }
+    }
+
+    private static String loadText(VirtualFile file) {
+        try {
+            return StringUtil.convertLineSeparators(VfsUtilCore.loadText(file));
+        } catch (IOException e) {
+            throw new TemplateException("Could not read template " + file.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package si.dtogenerator.template;
+
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Invalidates whatever was derived from a project's templates when one of them is edited in the editor, before the
+ * change is saved and {@link TemplateFileListener} sees it. Only the project the template belongs to is affected.
+ */
+public class TemplateDocumentListener implements DocumentListener {
+
+    @Override
+    public void documentChanged(@NotNull DocumentEvent event) {
+        VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+        if (file == null || !file.getPath().contains("/" + CodeTemplates.PROJECT_TEMPLATES_PATH + "/")) {
+            return;
+        }
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            TemplateModificationTracker tracker = TemplateModificationTracker.getInstance(project);
+            if (tracker.isTemplatePath(file.getPath())) {
+                tracker.incModificationCount();
+            }
+        }
+    }
+}
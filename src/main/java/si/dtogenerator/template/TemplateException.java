@@ -0,0 +1,15 @@
+package si.dtogenerator.template;
+
+/**
+ * Thrown when a code template cannot be parsed or rendered.
+ */
+public class TemplateException extends RuntimeException {
+
+    public TemplateException(String message) {
+        super(message);
+    }
+
+    public TemplateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
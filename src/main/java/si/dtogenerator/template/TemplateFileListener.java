@@ -0,0 +1,36 @@
+package si.dtogenerator.template;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Invalidates the compiled templates of a project when anything in its templates directory is created, changed or
+ * removed. Other file changes leave the cache alone, so generating hundreds of artefacts does not re-parse templates.
+ */
+public class TemplateFileListener implements BulkFileListener {
+
+    private final Project project;
+
+    public TemplateFileListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+        TemplateModificationTracker tracker = TemplateModificationTracker.getInstance(project);
+        for (VFileEvent event : events) {
+            if (tracker.isTemplatePath(event.getPath())
+                    || event instanceof VFileMoveEvent && tracker.isTemplatePath(((VFileMoveEvent) event).getOldPath())
+                    || event instanceof VFilePropertyChangeEvent && tracker.isTemplatePath(((VFilePropertyChangeEvent) event).getOldPath())) {
+                tracker.incModificationCount();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package si.dtogenerator.template;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+
+/**
+ * Code templates used by the generators. Each kind can be overridden per project by placing a file named
+ * {@link #getFileName()} in {@link CodeTemplates#PROJECT_TEMPLATES_PATH}.
+ */
+public enum TemplateKind {
+    DTO("DTO"),
+    BP("BP"),
+    DAO("DAO"),
+    MAPPER("Mapper"),
+    MAPPING_METHODS("MappingMethods");
+
+    private final String templateName;
+    private final Key<CachedValue<CodeTemplate>> cacheKey;
+
+    TemplateKind(String templateName) {
+        this.templateName = templateName;
+        this.cacheKey = Key.create("DTOGenerator.template." + templateName);
+    }
+
+    public String getFileName() {
+        return templateName + ".java.tpl";
+    }
+
+    Key<CachedValue<CodeTemplate>> getCacheKey() {
+        return cacheKey;
+    }
+}
@@ -0,0 +1,38 @@
+package si.dtogenerator.template;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Counts changes to the templates of one project. Compiled templates and everything derived from rendered templates
+ * depend on it, so editing a template in one project leaves the caches of other open projects alone.
+ */
+public final class TemplateModificationTracker extends SimpleModificationTracker {
+
+    private final Project project;
+
+    public TemplateModificationTracker(Project project) {
+        this.project = project;
+    }
+
+    public static TemplateModificationTracker getInstance(Project project) {
+        return project.getService(TemplateModificationTracker.class);
+    }
+
+    /**
+     * Returns whether the path is the project templates directory, a file in it or one of its parent directories
+     * within the project, so creating, moving or deleting any of them is noticed.
+     */
+    boolean isTemplatePath(String path) {
+        VirtualFile baseDir = ProjectUtil.guessProjectDir(project);
+        if (baseDir == null) {
+            return false;
+        }
+        String templatesPath = baseDir.getPath() + "/" + CodeTemplates.PROJECT_TEMPLATES_PATH;
+        return path.startsWith(templatesPath + "/")
+                || templatesPath.equals(path)
+                || templatesPath.startsWith(path + "/") && path.startsWith(baseDir.getPath() + "/");
+    }
+}
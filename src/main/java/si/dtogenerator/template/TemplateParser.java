@@ -0,0 +1,201 @@
+package si.dtogenerator.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles template text into a {@link CodeTemplate}. The syntax is a small Velocity-like subset:
+ * <ul>
+ *     <li>{@code ${entity.name}} inserts a variable, dotted paths walk into nested maps</li>
+ *     <li>{@code #if(field.foreignKey)} / {@code #if(!loop.last)} ... {@code #else} ... {@code #end}</li>
+ *     <li>{@code #foreach(field in entity.fields)} ... {@code #end}, with {@code loop.first}, {@code loop.last}
+ *     and {@code loop.index} available in the body</li>
+ *     <li>{@code ## comment} until the end of the line</li>
+ *     <li><code>\${</code>, {@code \#if}, {@code \#end}, {@code \##} etc. write the token itself, and
+ *     {@code #[[ ... ]]#} writes everything in between as is, e.g. for Bean Validation message expressions</li>
+ * </ul>
+ * {@code #{else}} and {@code #{end}} can be used when a directive is directly followed by text. A directive that is
+ * the only thing on its line removes the whole line from the output.
+ */
+public final class TemplateParser {
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\$\\{([A-Za-z_][\\w.]*)}" +
+                    "|#(if|foreach)\\(([^)\\n]*)\\)" +
+                    "|#\\{(else|end)}" +
+                    "|#(else|end)(?![\\w])" +
+                    "|##[^\\n]*" +
+                    "|\\\\(\\$\\{|#(?:if|foreach|else|end|\\{|\\[\\[|#))" +
+                    "|#\\[\\[([\\s\\S]*?)]]#" +
+                    "|(#\\[\\[)");
+    private static final Pattern CONDITION = Pattern.compile("\\s*(!?)\\s*([A-Za-z_][\\w.]*)\\s*");
+    private static final Pattern LOOP = Pattern.compile("\\s*([A-Za-z_]\\w*)\\s+in\\s+([A-Za-z_][\\w.]*)\\s*");
+
+    private final String name;
+    private final String text;
+    private final Deque<Block> blocks = new ArrayDeque<>();
+
+    private TemplateParser(String name, String text) {
+        this.name = name;
+        this.text = text;
+    }
+
+    public static CodeTemplate parse(String name, String text) {
+        return new TemplateParser(name, text).parse();
+    }
+
+    private CodeTemplate parse() {
+        blocks.push(new Block(null, 1));
+        Matcher matcher = TOKEN.matcher(text);
+        int textStart = 0;
+        int line = 1;
+        int lineCountedTo = 0;
+
+        while (matcher.find()) {
+            line += countLines(lineCountedTo, matcher.start());
+            lineCountedTo = matcher.start();
+
+            if (matcher.group(6) != null || matcher.group(7) != null) {
+                // Escaped tokens and literal blocks are copied without being interpreted
+                addText(textStart, matcher.start());
+                addLiteral(matcher.group(6) != null ? matcher.group(6) : matcher.group(7));
+                textStart = matcher.end();
+                continue;
+            }
+            if (matcher.group(8) != null) {
+                throw error("#[[ is missing its ]]#", line);
+            }
+
+            if (matcher.group(1) != null) {
+                addText(textStart, matcher.start());
+                blocks.peek().current().add(new CodeTemplate.VariableNode(new CodeTemplate.Path(name, line, matcher.group(1))));
+                textStart = matcher.end();
+                continue;
+            }
+
+            // Directives alone on their line swallow the line, so templates can be indented freely
+            int lineStart = text.lastIndexOf('\n', matcher.start() - 1) + 1;
+            int lineEnd = text.indexOf('\n', matcher.end());
+            int next = lineEnd < 0 ? text.length() : lineEnd + 1;
+            if (lineStart >= textStart && isBlank(lineStart, matcher.start())
+                    && isBlank(matcher.end(), lineEnd < 0 ? text.length() : lineEnd)) {
+                addText(textStart, lineStart);
+                textStart = next;
+            } else {
+                addText(textStart, matcher.start());
+                textStart = matcher.end();
+            }
+
+            if (matcher.group(2) != null) {
+                openBlock(matcher.group(2), matcher.group(3), line);
+            } else if (matcher.group(4) != null || matcher.group(5) != null) {
+                String directive = matcher.group(4) != null ? matcher.group(4) : matcher.group(5);
+                if ("else".equals(directive)) {
+                    elseBlock(line);
+                } else {
+                    closeBlock(line);
+                }
+            }
+        }
+        addText(textStart, text.length());
+
+        if (blocks.size() > 1) {
+            throw error("#" + blocks.peek().directive + " is missing its #end", blocks.peek().line);
+        }
+        return new CodeTemplate(name, Collections.unmodifiableList(blocks.pop().nodes));
+    }
+
+    private void openBlock(String directive, String arguments, int line) {
+        Block block = new Block(directive, line);
+        Matcher matcher = ("if".equals(directive) ? CONDITION : LOOP).matcher(arguments);
+        if (!matcher.matches()) {
+            throw error("Invalid #" + directive + " arguments '" + arguments + "'", line);
+        }
+        block.first = matcher.group(1);
+        block.second = matcher.group(2);
+        blocks.push(block);
+    }
+
+    private void elseBlock(int line) {
+        Block block = blocks.peek();
+        if (!"if".equals(block.directive) || block.elseNodes != null) {
+            throw error("#else without a matching #if", line);
+        }
+        block.elseNodes = new ArrayList<>();
+    }
+
+    private void closeBlock(int line) {
+        if (blocks.size() == 1) {
+            throw error("#end without a matching #if or #foreach", line);
+        }
+        Block block = blocks.pop();
+        CodeTemplate.Node node;
+        if ("if".equals(block.directive)) {
+            node = new CodeTemplate.IfNode(new CodeTemplate.Path(name, block.line, block.second), "!".equals(block.first),
+                    block.nodes, block.elseNodes != null ? block.elseNodes : Collections.emptyList());
+        } else {
+            node = new CodeTemplate.ForeachNode(block.first, new CodeTemplate.Path(name, block.line, block.second), block.nodes);
+        }
+        blocks.peek().current().add(node);
+    }
+
+    private void addText(int start, int end) {
+        if (start < end) {
+            blocks.peek().current().add(new CodeTemplate.TextNode(text.substring(start, end)));
+        }
+    }
+
+    private void addLiteral(String literal) {
+        if (!literal.isEmpty()) {
+            blocks.peek().current().add(new CodeTemplate.TextNode(literal));
+        }
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int countLines(int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private TemplateException error(String message, int line) {
+        return new TemplateException(message + " (template " + name + ", line " + line + ")");
+    }
+
+    private static final class Block {
+
+        private final String directive;
+        private final int line;
+        private final List<CodeTemplate.Node> nodes = new ArrayList<>();
+        private List<CodeTemplate.Node> elseNodes;
+        // Negation and condition for #if, loop variable and list for #foreach
+        private String first;
+        private String second;
+
+        Block(String directive, int line) {
+            this.directive = directive;
+            this.line = line;
+        }
+
+        List<CodeTemplate.Node> current() {
+            return elseNodes != null ? elseNodes : nodes;
+        }
+    }
+}
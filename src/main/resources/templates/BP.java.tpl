@@ -0,0 +1,31 @@
+## Used for <Entity>BP.
+## Variables: className, entity, fields, quarkus3, dtoPackage, beanParamsPackage
+import jakarta.ws.rs.*;
+import javax.ws.rs.*;
+
+public class ${className} extends PagingBP {
+
+#foreach(field in fields)
+    @QueryParam("${field.name}")
+    private ${field.type} ${field.name};
+#end
+
+    public ${className}() {
+    }
+
+    public ${className}(#foreach(field in fields)${field.type} ${field.name}#if(!loop.last), #end#end) {
+#foreach(field in fields)
+        this.${field.name} = ${field.name};
+#end
+    }
+#foreach(field in fields)
+
+    public ${field.type} get${field.capitalizedName}() {
+        return ${field.name};
+    }
+
+    public void set${field.capitalizedName}(${field.type} ${field.name}) {
+        this.${field.name} = ${field.name};
+    }
+#end
+}
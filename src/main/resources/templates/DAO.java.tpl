@@ -0,0 +1,74 @@
+## Used for <Entity>DAO. Its methods are also compared with, and used to resync, an existing DAO.
+## Variables: className, entity, quarkus3, dtoPackage, beanParamsPackage
+#if(quarkus3)
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.*;
+import jakarta.enterprise.context.*;
+#else
+import javax.persistence.criteria.*;
+import javax.persistence.*;
+import javax.enterprise.context.*;
+#end
+import ${beanParamsPackage}.*;
+import ${entity.packageName}.*;
+import java.util.*;
+
+@RequestScoped
+public class ${className} extends PetrolGenericDAO<${entity.name}> {
+
+    public List<${entity.name}> listAll(${entity.name}BP ${entity.variableName}BP#foreach(field in entity.foreignKeys), ${field.type} ${field.name}#end) {
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<${entity.name}> cq = cb.createQuery(${entity.name}.class);
+        Root<${entity.name}> root = cq.from(${entity.name}.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+#foreach(field in entity.fields)
+#if(field.foreignKey)
+        if (Objects.nonNull(${field.name})) {
+            predicates.add(cb.equal(root.get(${entity.name}_.${field.constantName}), ${field.name}));
+        }
+#else
+        if (Objects.nonNull(${entity.variableName}BP.get${field.capitalizedName}())) {
+            predicates.add(cb.equal(root.get(${entity.name}_.${field.constantName}), ${entity.variableName}BP.get${field.capitalizedName}()));
+        }
+#end
+#end
+
+        cq.where(predicates.toArray(new Predicate[0]));
+
+        int pageSize = ${entity.variableName}BP.getPageSize();
+        int pageNumber = ${entity.variableName}BP.getPageNumber();
+
+        cq.orderBy(prepareOrderList(${entity.variableName}BP, cb, root));
+        TypedQuery<${entity.name}> query = getEntityManager().createQuery(cq);
+
+        query.setMaxResults(pageSize);
+        query.setFirstResult(pageSize * (pageNumber - 1));
+
+        return query.getResultList();
+    }
+
+    public Long listAllCount(${entity.name}BP ${entity.variableName}BP#foreach(field in entity.foreignKeys), ${field.type} ${field.name}#end) {
+        CriteriaBuilder cb = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<${entity.name}> root = cq.from(${entity.name}.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+#foreach(field in entity.fields)
+#if(field.foreignKey)
+        if (Objects.nonNull(${field.name})) {
+            predicates.add(cb.equal(root.get(${entity.name}_.${field.constantName}), ${field.name}));
+        }
+#else
+        if (Objects.nonNull(${entity.variableName}BP.get${field.capitalizedName}())) {
+            predicates.add(cb.equal(root.get(${entity.name}_.${field.constantName}), ${entity.variableName}BP.get${field.capitalizedName}()));
+        }
+#end
+#end
+
+        cq.where(predicates.toArray(new Predicate[0]));
+        TypedQuery<Long> query = getEntityManager().createQuery(cq);
+
+        return query.getSingleResult();
+    }
+}
@@ -0,0 +1,36 @@
+## Used for New<Entity>DTO, <Entity>ReturnDTO, <Entity>PutDTO and <Entity>UpdateDTO.
+## Variables: className, entity, fields, returnDto, updateDto, quarkus3, dtoPackage, beanParamsPackage
+import jakarta.validation.constraints.*;
+import javax.validation.constraints.*;
+
+public class ${className} {
+
+#foreach(field in fields)
+#if(field.notBlank)
+    @NotBlank
+#end
+#if(field.notNull)
+    @NotNull
+#end
+    private ${field.type} ${field.name};
+#end
+
+    public ${className}() {
+    }
+
+    public ${className}(#foreach(field in fields)${field.type} ${field.name}#if(!loop.last), #end#end) {
+#foreach(field in fields)
+        this.${field.name} = ${field.name};
+#end
+    }
+#foreach(field in fields)
+
+    public ${field.type} get${field.capitalizedName}() {
+        return ${field.name};
+    }
+
+    public void set${field.capitalizedName}(${field.type} ${field.name}) {
+        this.${field.name} = ${field.name};
+    }
+#end
+}
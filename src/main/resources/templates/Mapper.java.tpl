@@ -0,0 +1,10 @@
+## Used for <Entity>Mapper when it does not exist yet. mappingMethods is the rendered MappingMethods template.
+## Variables: className, entity, mappingMethods, quarkus3, dtoPackage, beanParamsPackage
+import ${dtoPackage}.*;
+import ${entity.packageName}.*;
+import java.util.*;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "#if(quarkus3)jakarta#{else}cdi#end")
+public interface ${className} {
+${mappingMethods}}
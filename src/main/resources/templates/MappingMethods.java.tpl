@@ -0,0 +1,24 @@
+## Mapping methods added to <Entity>Mapper for each generated DTO.
+## Variables: entity, dtoName, dtoVariableName, newDto, returnDto, putDto, updateDto, quarkus3, dtoPackage, beanParamsPackage
+#if(updateDto)
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    ${entity.name} from${dtoName}(@MappingTarget ${entity.name} ${entity.variableName}, ${dtoName} ${dtoVariableName});
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    List<${entity.name}> to${dtoName}(@MappingTarget List<${entity.name}> ${entity.variableName}, List<${dtoName}> ${dtoVariableName});
+#end
+#if(returnDto)
+    ${dtoName} to${dtoName}(${entity.name} ${entity.variableName});
+
+    List<${dtoName}> to${dtoName}(List<${entity.name}> ${entity.variableName});
+#end
+#if(putDto)
+    ${entity.name} from${dtoName}(@MappingTarget ${entity.name} ${entity.variableName}, ${dtoName} ${dtoVariableName});
+
+    List<${entity.name}> to${dtoName}(@MappingTarget List<${entity.name}> ${entity.variableName}, List<${dtoName}> ${dtoVariableName});
+#end
+#if(newDto)
+    ${entity.name} from${dtoName}(${dtoName} ${dtoVariableName});
+
+    List<${entity.name}> from${dtoName}(List<${dtoName}> ${dtoVariableName});
+#end
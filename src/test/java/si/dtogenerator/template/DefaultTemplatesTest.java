@@ -0,0 +1,151 @@
+package si.dtogenerator.template;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultTemplatesTest {
+
+    private static final Map<String, Object> ID = field("id", "Long", false, true);
+    private static final Map<String, Object> OWNER = field("owner", "Person", true, false);
+    private static final Map<String, Object> NAME = field("name", "String", false, true);
+
+    @Test
+    public void everyDefaultTemplateParses() {
+        for (TemplateKind kind : TemplateKind.values()) {
+            assertEquals(kind.getFileName(), parse(kind).getName());
+        }
+    }
+
+    @Test
+    public void rendersDto() {
+        Map<String, Object> context = context();
+        context.put("className", "CarReturnDTO");
+        context.put("fields", List.of(ID, field("owner", "PersonReturnDTO", true, false), NAME));
+        context.put("returnDto", true);
+        context.put("updateDto", false);
+
+        String dto = render(TemplateKind.DTO, context);
+
+        assertContains(dto, "public class CarReturnDTO {\n");
+        assertContains(dto, "    @NotNull\n    private Long id;\n    private PersonReturnDTO owner;\n    @NotBlank\n    private String name;\n");
+        assertContains(dto, "    public CarReturnDTO(Long id, PersonReturnDTO owner, String name) {\n"
+                + "        this.id = id;\n        this.owner = owner;\n        this.name = name;\n    }\n");
+        assertContains(dto, "    public void setOwner(PersonReturnDTO owner) {\n        this.owner = owner;\n    }\n");
+        assertFullyRendered(dto);
+    }
+
+    @Test
+    public void rendersBeanParams() {
+        Map<String, Object> context = context();
+        context.put("className", "CarBP");
+        context.put("fields", List.of(ID, field("ownerId", "String", true, false)));
+
+        String bp = render(TemplateKind.BP, context);
+
+        assertContains(bp, "public class CarBP extends PagingBP {\n");
+        assertContains(bp, "    @QueryParam(\"ownerId\")\n    private String ownerId;\n");
+        assertContains(bp, "    public CarBP(Long id, String ownerId) {\n");
+        assertFullyRendered(bp);
+    }
+
+    @Test
+    public void rendersDao() {
+        Map<String, Object> context = context();
+        context.put("className", "CarDAO");
+
+        String dao = render(TemplateKind.DAO, context);
+
+        assertContains(dao, "import jakarta.persistence.criteria.*;\n");
+        assertFalse(dao.contains("javax.persistence"));
+        assertContains(dao, "public List<Car> listAll(CarBP carBP, Person owner) {\n");
+        assertContains(dao, "public Long listAllCount(CarBP carBP, Person owner) {\n");
+        assertContains(dao, "predicates.add(cb.equal(root.get(Car_.OWNER), owner));\n");
+        assertContains(dao, "predicates.add(cb.equal(root.get(Car_.NAME), carBP.getName()));\n");
+        assertFullyRendered(dao);
+    }
+
+    @Test
+    public void rendersMapperWithMappingMethods() {
+        Map<String, Object> context = context();
+        context.put("dtoName", "CarReturnDTO");
+        context.put("dtoVariableName", "carReturnDTO");
+        context.put("newDto", false);
+        context.put("returnDto", true);
+        context.put("putDto", false);
+        context.put("updateDto", false);
+        String mappingMethods = render(TemplateKind.MAPPING_METHODS, context);
+
+        assertEquals("    CarReturnDTO toCarReturnDTO(Car car);\n\n    List<CarReturnDTO> toCarReturnDTO(List<Car> car);\n",
+                mappingMethods);
+
+        context.put("className", "CarMapper");
+        context.put("mappingMethods", mappingMethods);
+        String mapper = render(TemplateKind.MAPPER, context);
+
+        assertContains(mapper, "import si.example.service.car.*;\nimport si.example.entity.*;\n");
+        assertContains(mapper, "@Mapper(componentModel = \"jakarta\")\npublic interface CarMapper {\n" + mappingMethods + "}");
+        assertFullyRendered(mapper);
+    }
+
+    @Test
+    public void mapperUsesCdiBeforeQuarkus3() {
+        Map<String, Object> context = context();
+        context.put("quarkus3", false);
+        context.put("className", "CarMapper");
+        context.put("mappingMethods", "");
+
+        assertContains(render(TemplateKind.MAPPER, context), "@Mapper(componentModel = \"cdi\")\n");
+    }
+
+    private static CodeTemplate parse(TemplateKind kind) {
+        return TemplateParser.parse(kind.getFileName(), CodeTemplates.loadDefaultTemplate(kind));
+    }
+
+    private static String render(TemplateKind kind, Map<String, Object> context) {
+        return parse(kind).render(context);
+    }
+
+    private static Map<String, Object> context() {
+        Map<String, Object> entity = new HashMap<>();
+        entity.put("name", "Car");
+        entity.put("variableName", "car");
+        entity.put("packageName", "si.example.entity");
+        entity.put("fields", List.of(ID, OWNER, NAME));
+        entity.put("foreignKeys", List.of(OWNER));
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("entity", entity);
+        context.put("quarkus3", true);
+        context.put("dtoPackage", "si.example.service.car");
+        context.put("beanParamsPackage", "si.example.beanParams");
+        return context;
+    }
+
+    private static Map<String, Object> field(String name, String type, boolean foreignKey, boolean notNull) {
+        Map<String, Object> field = new HashMap<>();
+        field.put("name", name);
+        field.put("type", type);
+        field.put("capitalizedName", Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        field.put("constantName", name.toUpperCase());
+        field.put("foreignKey", foreignKey);
+        field.put("notNull", notNull && !"String".equals(type));
+        field.put("notBlank", notNull && "String".equals(type));
+        return field;
+    }
+
+    private static void assertContains(String text, String expected) {
+        assertTrue("Expected\n" + expected + "\nin\n" + text, text.contains(expected));
+    }
+
+    private static void assertFullyRendered(String text) {
+        assertFalse(text, text.contains("${"));
+        assertFalse(text, text.contains("#if") || text.contains("#foreach") || text.contains("#end") || text.contains("##"));
+    }
+}
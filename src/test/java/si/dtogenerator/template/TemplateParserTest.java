@@ -0,0 +1,160 @@
+package si.dtogenerator.template;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TemplateParserTest {
+
+    @Test
+    public void rendersVariablesAndDottedPaths() {
+        CodeTemplate template = TemplateParser.parse("test", "class ${className} extends ${entity.name}Base {}");
+
+        assertEquals("class CarDTO extends CarBase {}",
+                template.render(Map.of("className", "CarDTO", "entity", Map.of("name", "Car"))));
+    }
+
+    @Test
+    public void rendersInlineIfInsideForeach() {
+        CodeTemplate template = TemplateParser.parse("test", "(#foreach(x in items)${x}#if(!loop.last), #end#end)");
+
+        assertEquals("(a, b, c)", template.render(Map.of("items", List.of("a", "b", "c"))));
+        assertEquals("(a)", template.render(Map.of("items", List.of("a"))));
+        assertEquals("()", template.render(Map.of("items", List.of())));
+    }
+
+    @Test
+    public void exposesLoopIndexAndFirst() {
+        CodeTemplate template = TemplateParser.parse("test", "#foreach(x in items)#if(loop.first)[#end${loop.index}=${x} #end");
+
+        assertEquals("[0=a 1=b ", template.render(Map.of("items", List.of("a", "b"))));
+    }
+
+    @Test
+    public void rendersElseBranch() {
+        CodeTemplate template = TemplateParser.parse("test", "#if(quarkus3)jakarta#{else}javax#{end}.persistence");
+
+        assertEquals("jakarta.persistence", template.render(Map.of("quarkus3", true)));
+        assertEquals("javax.persistence", template.render(Map.of("quarkus3", false)));
+    }
+
+    @Test
+    public void directivesAloneOnTheirLineAreRemovedWithTheLine() {
+        CodeTemplate template = TemplateParser.parse("test", "a\n    #if(flag)\nb\n    #end\nc\n");
+
+        assertEquals("a\nb\nc\n", template.render(Map.of("flag", true)));
+        assertEquals("a\nc\n", template.render(Map.of("flag", false)));
+    }
+
+    @Test
+    public void commentsAreNotRendered() {
+        CodeTemplate template = TemplateParser.parse("test", "## Variables: none\na ## trailing\n");
+
+        assertEquals("a \n", template.render(Map.of()));
+    }
+
+    @Test
+    public void escapedTokensAreWrittenAsIs() {
+        CodeTemplate template = TemplateParser.parse("test",
+                "@Size(message = \"\\${validatedValue} is too long\")\n\\#if(x) \\#{else} \\#end \\## ${name}\n");
+
+        assertEquals("@Size(message = \"${validatedValue} is too long\")\n#if(x) #{else} #end ## Car\n",
+                template.render(Map.of("name", "Car")));
+    }
+
+    @Test
+    public void backslashesBeforeOtherTextAreKept() {
+        CodeTemplate template = TemplateParser.parse("test", "\"a\\\\b\" + \"\\$\" ${name}");
+
+        assertEquals("\"a\\\\b\" + \"\\$\" Car", template.render(Map.of("name", "Car")));
+    }
+
+    @Test
+    public void literalBlocksAreWrittenAsIs() {
+        CodeTemplate template = TemplateParser.parse("test",
+                "a\n#[[@Size(message = \"${validatedValue}\")\n#if(x)## #end]]#\n${name}\n");
+
+        assertEquals("a\n@Size(message = \"${validatedValue}\")\n#if(x)## #end\nCar\n", template.render(Map.of("name", "Car")));
+    }
+
+    @Test
+    public void linesAreCountedThroughLiteralBlocks() {
+        CodeTemplate template = TemplateParser.parse("test", "#[[\n\n]]#${missing}");
+
+        assertRenderError(template, Map.of(), "Variable 'missing' is not defined (template test, line 3)");
+    }
+
+    @Test
+    public void unterminatedLiteralBlockIsAnError() {
+        assertParseError("a\n#[[${x}\n", "#[[ is missing its ]]# (template test, line 2)");
+    }
+
+    @Test
+    public void missingEndReportsTheOpeningLine() {
+        assertParseError("a\n#foreach(x in items)\n${x}\n", "#foreach is missing its #end (template test, line 2)");
+        assertParseError("#if(flag)\nb\n", "#if is missing its #end (template test, line 1)");
+    }
+
+    @Test
+    public void strayElseIsAnError() {
+        assertParseError("a\n\n#else\n", "#else without a matching #if (template test, line 3)");
+        assertParseError("#foreach(x in items)\n#else\n#end\n", "#else without a matching #if (template test, line 2)");
+        assertParseError("#if(flag)\n#else\n#else\n#end\n", "#else without a matching #if (template test, line 3)");
+    }
+
+    @Test
+    public void strayEndIsAnError() {
+        assertParseError("a\n#end\n", "#end without a matching #if or #foreach (template test, line 2)");
+    }
+
+    @Test
+    public void invalidArgumentsAreAnError() {
+        assertParseError("\n#foreach(items)\n#end\n", "Invalid #foreach arguments 'items' (template test, line 2)");
+    }
+
+    @Test
+    public void undefinedVariableReportsItsLine() {
+        CodeTemplate template = TemplateParser.parse("test", "a\nb ${entity.name}\nc ${missing}\n");
+
+        assertRenderError(template, Map.of("entity", Map.of("name", "Car")),
+                "Variable 'missing' is not defined (template test, line 3)");
+        assertRenderError(template, Map.of("entity", Map.of()),
+                "Variable 'entity.name' is not defined (template test, line 2)");
+    }
+
+    @Test
+    public void undefinedConditionReportsTheDirectiveLine() {
+        CodeTemplate template = TemplateParser.parse("test", "a\n#if(!field.notNull)\nb\n#end\n");
+
+        assertRenderError(template, Map.of(), "Variable 'field.notNull' is not defined (template test, line 2)");
+    }
+
+    @Test
+    public void loopVariablesAreOnlyDefinedInsideTheLoop() {
+        CodeTemplate template = TemplateParser.parse("test", "#foreach(x in items)${x}#end\n${x}");
+
+        assertRenderError(template, Map.of("items", List.of("a")), "Variable 'x' is not defined (template test, line 2)");
+    }
+
+    private static void assertParseError(String text, String expectedMessage) {
+        try {
+            TemplateParser.parse("test", text);
+            fail("Expected a TemplateException for:\n" + text);
+        } catch (TemplateException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+
+    private static void assertRenderError(CodeTemplate template, Map<String, ?> context, String expectedMessage) {
+        try {
+            template.render(context);
+            fail("Expected a TemplateException");
+        } catch (TemplateException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+}